@@ -1,4 +1,10 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
 import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 // Interfejs reprezentujący dokument
 interface Document {
@@ -24,6 +30,12 @@ class ConcertDocument implements Document {
     private List<String> songs = new ArrayList<>();
     private Map<String, String> members = new HashMap<>();
 
+    // Stan warstw przechowywania zarządzany przez DocumentArchive
+    private ColdSegment coldSegment; // Segment z piosenkami i artystami, gdy koncert jest w warstwie zimnej
+    private int coldIndex; // Pozycja koncertu w segmencie
+    long lastAccess = System.currentTimeMillis();
+    boolean restored; // Przywrócony z warstwy zimnej - nie wraca do niej przed upływem czasu bezczynności
+
     public ConcertDocument(String title, int year, String category, String storageLocation) {
         this.title = title;
         this.year = year;
@@ -81,12 +93,49 @@ class ConcertDocument implements Document {
     }
 
     public List<String> getSongs() {
+        restore();
+        lastAccess = System.currentTimeMillis(); // Odczyt liczy się jako użycie koncertu
         return songs;
     }
 
     public Map<String, String> getMembers() {
+        restore();
+        lastAccess = System.currentTimeMillis(); // Odczyt liczy się jako użycie koncertu
         return members;
     }
+
+    boolean isCold() {
+        return coldSegment != null;
+    }
+
+    ColdSegment getColdSegment() {
+        return coldSegment;
+    }
+
+    int getColdIndex() {
+        return coldIndex;
+    }
+
+    // Przeniesienie piosenek i artystów do segmentu (wywoływane przez segment po ich spakowaniu)
+    void moveToColdSegment(ColdSegment segment, int index) {
+        coldSegment = segment;
+        coldIndex = index;
+        songs = null;
+        members = null;
+        restored = false;
+    }
+
+    // Przywrócenie piosenek i artystów z warstwy zimnej, aby zmiany w nich były trwałe
+    void restore() {
+        if (coldSegment != null) {
+            ColdPayload payload = coldSegment.take(coldIndex);
+            songs = payload.songs;
+            members = payload.members;
+            coldSegment = null;
+            restored = true;
+            lastAccess = System.currentTimeMillis();
+        }
+    }
 }
 
 // Klasa do budowania dokumentów koncertowych
@@ -143,28 +192,568 @@ class ConcertDocumentBuilder {
     }
 }
 
+// Sposób grupowania zimnych dokumentów w skompresowane bloki
+enum ColdBlockGrouping {
+    YEAR,
+    STORAGE_LOCATION;
+
+    // Klucz bloku, do którego trafia dany koncert
+    String blockKey(ConcertDocument document) {
+        if (this == YEAR) {
+            return "Rok " + document.getYear();
+        }
+        return "Miejsce " + document.getStorageLocation();
+    }
+}
+
+// Szacunkowe rozmiary obiektów na stercie przy założeniu 64-bitowej JVM ze skompresowanymi wskaźnikami
+// (domyślnie dla sterty poniżej 32 GB) i wyrównaniu obiektów do 8 B; bez tego rzeczywiste rozmiary są większe.
+// Każdy napis liczony jest osobno, więc napisy współdzielone w warstwie gorącej (np. literały) zawyżają oszczędność.
+final class HeapSizes {
+    static final int REFERENCE = 4; // Skompresowany wskaźnik
+    static final int ARRAY_HEADER = 16; // Nagłówek obiektu (12 B) i pole długości tablicy (4 B)
+    static final int STRING = 24; // Nagłówek, referencja do tablicy, hash, coder i hashIsZero
+    static final int ARRAY_LIST = 24; // Nagłówek, referencja do tablicy, size i modCount
+    static final int HASH_MAP = 48; // Nagłówek, cztery referencje (table, entrySet, keySet, values), trzy pola int i float
+    static final int HASH_MAP_NODE = 32; // Nagłówek, hash, key, value i next
+    static final int LINKED_HASH_MAP_ENTRY = 40; // Węzeł HashMap z referencjami before i after
+    static final int COLD_PAYLOAD = 24; // Nagłówek i referencje songs oraz members
+    static final int COLD_SEGMENT = 40; // Nagłówek, trzy referencje, heapEstimate (long) i liveCount
+    static final int COLD_BLOCK = 24; // Nagłówek i referencje key, cache oraz segments
+    static final int CONCERT_TIER_FIELDS = 24; // Pola coldSegment, coldIndex, lastAccess i restored dodane do koncertu
+
+    private HeapSizes() {
+    }
+
+    static long align(long size) {
+        return (size + 7) / 8 * 8;
+    }
+
+    static long array(long length, int elementSize) {
+        return align(ARRAY_HEADER + length * elementSize);
+    }
+
+    // Napis przechowuje znaki w tablicy bajtów: 1 B na znak (Latin-1) lub 2 B (UTF-16)
+    static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        return STRING + array(value.length(), latin1 ? 1 : 2);
+    }
+
+    // HashMap zaczyna od 16 kubełków i podwaja tablicę po przekroczeniu 3/4 zapełnienia
+    static long hashMapTable(int entries) {
+        int tableSize = 16;
+        while (tableSize * 3 / 4 < entries) {
+            tableSize *= 2;
+        }
+        return array(tableSize, REFERENCE);
+    }
+}
+
+// Klasa reprezentująca ciężką część koncertu (piosenki i artyści) przechowywaną w warstwie zimnej
+class ColdPayload {
+    final List<String> songs;
+    final Map<String, String> members;
+
+    ColdPayload(List<String> songs, Map<String, String> members) {
+        this.songs = songs;
+        this.members = members;
+    }
+
+    // Szacunkowy rozmiar piosenek i artystów na stercie (założenia opisane w HeapSizes)
+    long estimateHeapSize() {
+        long size = HeapSizes.COLD_PAYLOAD + HeapSizes.ARRAY_LIST + HeapSizes.array(songs.size(), HeapSizes.REFERENCE);
+        for (String song : songs) {
+            size += HeapSizes.string(song);
+        }
+        size += HeapSizes.HASH_MAP + HeapSizes.hashMapTable(members.size()) + (long) HeapSizes.HASH_MAP_NODE * members.size();
+        for (Map.Entry<String, String> member : members.entrySet()) {
+            size += HeapSizes.string(member.getKey()) + HeapSizes.string(member.getValue());
+        }
+        return size;
+    }
+}
+
+// Klasa reprezentująca skompresowany (Deflate) segment bloku zimnych koncertów
+// Pozycja w segmencie odpowiada koncertowi w tablicy owners; przywrócony koncert zostawia pustą pozycję (null),
+// a segmenty z przewagą pustych pozycji są przepakowywane przy porządkowaniu warstw.
+class ColdSegment {
+    private final ColdBlock block;
+    private final byte[] compressedData;
+    private final ConcertDocument[] owners;
+    private final long heapEstimate; // Szacunkowy rozmiar całego segmentu po rozpakowaniu na stercie
+    private int liveCount;
+
+    private ColdSegment(ColdBlock block, byte[] compressedData, ConcertDocument[] owners, long heapEstimate) {
+        this.block = block;
+        this.compressedData = compressedData;
+        this.owners = owners;
+        this.heapEstimate = heapEstimate;
+        this.liveCount = owners.length;
+    }
+
+    // Metoda do pakowania piosenek i artystów koncertów w nowy segment; koncerty przechodzą do warstwy zimnej
+    static ColdSegment pack(ColdBlock block, List<ConcertDocument> documents, List<ColdPayload> payloads) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        // Rozpakowany segment to lista pozycji i dane każdej z nich
+        long heapEstimate = HeapSizes.ARRAY_LIST + HeapSizes.array(payloads.size(), HeapSizes.REFERENCE);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new DeflaterOutputStream(compressed, deflater)))) {
+            out.writeInt(payloads.size());
+            for (ColdPayload payload : payloads) {
+                writePayload(out, payload);
+                heapEstimate += payload.estimateHeapSize();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end(); // Własny Deflater nie jest zwalniany przez strumień
+        }
+        ColdSegment segment = new ColdSegment(block, compressed.toByteArray(),
+                documents.toArray(new ConcertDocument[0]), heapEstimate);
+        for (int i = 0; i < segment.owners.length; i++) {
+            segment.owners[i].moveToColdSegment(segment, i);
+        }
+        return segment;
+    }
+
+    // Metoda do rozpakowywania wszystkich pozycji segmentu (z pominięciem cache i statystyk)
+    List<ColdPayload> unpack() {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(compressedData))))) {
+            int count = in.readInt();
+            List<ColdPayload> payloads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                payloads.add(readPayload(in));
+            }
+            return payloads;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Odczyt segmentu przez cache (liczony w statystykach zimnych odczytów)
+    List<ColdPayload> read() {
+        return block.getCache().read(this);
+    }
+
+    // Wyjęcie koncertu przy przywracaniu do warstwy gorącej - bez przepakowania i bez liczenia jako zimny odczyt
+    ColdPayload take(int index) {
+        ColdPayload payload = block.getCache().readQuietly(this).get(index);
+        owners[index] = null;
+        liveCount--;
+        return payload;
+    }
+
+    // Koncerty i ich dane z niepustych pozycji (do scalania i przepakowania)
+    void collectLive(List<ConcertDocument> documents, List<ColdPayload> payloads) {
+        List<ColdPayload> all = block.getCache().peek(this);
+        if (all == null) {
+            all = unpack();
+        }
+        for (int i = 0; i < owners.length; i++) {
+            if (owners[i] != null) {
+                documents.add(owners[i]);
+                payloads.add(all.get(i));
+            }
+        }
+    }
+
+    private static void writePayload(DataOutputStream out, ColdPayload payload) throws IOException {
+        out.writeInt(payload.songs.size());
+        for (String song : payload.songs) {
+            writeNullable(out, song);
+        }
+        out.writeInt(payload.members.size());
+        for (Map.Entry<String, String> member : payload.members.entrySet()) {
+            writeNullable(out, member.getKey());
+            writeNullable(out, member.getValue());
+        }
+    }
+
+    private static ColdPayload readPayload(DataInputStream in) throws IOException {
+        int songCount = in.readInt();
+        List<String> songs = new ArrayList<>(songCount);
+        for (int i = 0; i < songCount; i++) {
+            songs.add(readNullable(in));
+        }
+        int memberCount = in.readInt();
+        List<String> names = new ArrayList<>(memberCount);
+        List<String> roles = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            names.add(readNullable(in));
+            roles.add(readNullable(in));
+        }
+        return new ColdPayload(songs, restoreMembers(names, roles));
+    }
+
+    // Kolejność wpisów HashMap zależy od rozmiaru tablicy (np. putAll do pustej mapy tworzy mniejszą tablicę
+    // niż konstruktor domyślny), więc dobieramy najmniejszą pojemność odtwarzającą zapisaną kolejność
+    private static Map<String, String> restoreMembers(List<String> names, List<String> roles) {
+        for (int capacity = 1; ; capacity *= 2) {
+            Map<String, String> members = new HashMap<>(capacity);
+            for (int i = 0; i < names.size(); i++) {
+                members.put(names.get(i), roles.get(i));
+            }
+            if (capacity >= 1 << 30 || new ArrayList<>(members.keySet()).equals(names)) {
+                return members;
+            }
+        }
+    }
+
+    // Napis zapisywany jako długość i bajty UTF-8 (-1 oznacza null); writeUTF ogranicza napis do 65535 bajtów
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public ColdBlock getBlock() {
+        return block;
+    }
+
+    public int size() {
+        return owners.length;
+    }
+
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    public int getCompressedSize() {
+        return compressedData.length;
+    }
+
+    // Rozmiar zajmowany w cache - rozpakowywane są wszystkie pozycje, także puste
+    public long getHeapEstimate() {
+        return heapEstimate;
+    }
+
+    // Stały narzut spakowanego segmentu: obiekt, nagłówek tablicy danych i tablica owners
+    public long getOverheadEstimate() {
+        return HeapSizes.COLD_SEGMENT + HeapSizes.ARRAY_HEADER + HeapSizes.array(owners.length, HeapSizes.REFERENCE);
+    }
+
+    // Szacunkowy rozmiar pozycji wciąż należących do warstwy zimnej
+    public long getLiveHeapEstimate() {
+        return owners.length == 0 ? 0 : heapEstimate * liveCount / owners.length;
+    }
+}
+
+// Klasa reprezentująca blok zimnych koncertów (jeden rok lub jedno miejsce) złożony z segmentów
+// Koncerty pozostają w archiwum jako obiekty z tytułem, rokiem i miejscem - w bloku są tylko piosenki i artyści.
+class ColdBlock {
+    // Górna granica wielkości segmentu - ogranicza koszt jednego rozpakowania i pamięć odczytu poza cache
+    static final int MAX_SEGMENT_DOCUMENTS = 256;
+
+    private final String key;
+    private final ColdBlockCache cache;
+    private final List<ColdSegment> segments = new ArrayList<>();
+
+    public ColdBlock(String key, ColdBlockCache cache) {
+        this.key = key;
+        this.cache = cache;
+    }
+
+    // Dopisanie koncertów jako nowych segmentów; ich piosenki i artyści są zwalniani ze sterty
+    void append(List<ConcertDocument> documents) {
+        for (int start = 0; start < documents.size(); start += MAX_SEGMENT_DOCUMENTS) {
+            List<ConcertDocument> chunk = documents.subList(start, Math.min(documents.size(), start + MAX_SEGMENT_DOCUMENTS));
+            List<ColdPayload> payloads = new ArrayList<>();
+            for (ConcertDocument document : chunk) {
+                payloads.add(new ColdPayload(document.getSongs(), document.getMembers()));
+            }
+            segments.add(ColdSegment.pack(this, chunk, payloads));
+        }
+        // Scalanie segmentów jak w drzewie LSM: nowszy segment nie większy od poprzedniego,
+        // więc każdy koncert jest przepakowywany co najwyżej logarytmiczną liczbę razy
+        while (segments.size() >= 2) {
+            ColdSegment last = segments.get(segments.size() - 1);
+            ColdSegment previous = segments.get(segments.size() - 2);
+            if (last.getLiveCount() < previous.getLiveCount()
+                    || last.getLiveCount() + previous.getLiveCount() > MAX_SEGMENT_DOCUMENTS) {
+                break;
+            }
+            segments.remove(segments.size() - 1);
+            segments.set(segments.size() - 1, repack(previous, last));
+        }
+    }
+
+    // Usunięcie pustych segmentów i przepakowanie tych, w których przeważają przywrócone koncerty
+    void compact() {
+        for (Iterator<ColdSegment> iterator = segments.iterator(); iterator.hasNext();) {
+            ColdSegment segment = iterator.next();
+            if (segment.getLiveCount() == 0) {
+                cache.invalidate(segment);
+                iterator.remove();
+            }
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i).getLiveCount() * 2 < segments.get(i).size()) {
+                segments.set(i, repack(segments.get(i)));
+            }
+        }
+    }
+
+    private ColdSegment repack(ColdSegment... parts) {
+        List<ConcertDocument> documents = new ArrayList<>();
+        List<ColdPayload> payloads = new ArrayList<>();
+        for (ColdSegment part : parts) {
+            part.collectLive(documents, payloads);
+            cache.invalidate(part);
+        }
+        return ColdSegment.pack(this, documents, payloads);
+    }
+
+    ColdBlockCache getCache() {
+        return cache;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public int getDocumentCount() {
+        int count = 0;
+        for (ColdSegment segment : segments) {
+            count += segment.getLiveCount();
+        }
+        return count;
+    }
+
+    public long getCompressedSize() {
+        long size = 0;
+        for (ColdSegment segment : segments) {
+            size += segment.getCompressedSize();
+        }
+        return size;
+    }
+
+    public long getHeapEstimate() {
+        long size = 0;
+        for (ColdSegment segment : segments) {
+            size += segment.getLiveHeapEstimate();
+        }
+        return size;
+    }
+
+    // Narzut bloku: obiekt, lista segmentów, wpis w mapie bloków archiwum, klucz i segmenty
+    public long getOverheadEstimate() {
+        long size = HeapSizes.COLD_BLOCK + HeapSizes.ARRAY_LIST + HeapSizes.array(segments.size(), HeapSizes.REFERENCE)
+                + HeapSizes.LINKED_HASH_MAP_ENTRY + HeapSizes.string(key);
+        for (ColdSegment segment : segments) {
+            size += segment.getOverheadEstimate();
+        }
+        return size;
+    }
+}
+
+// Klasa reprezentująca ograniczony rozmiarem cache rozpakowanych segmentów (LRU)
+// Rozmiar segmentów liczony jest jako szacunkowe zajęcie sterty po rozpakowaniu.
+class ColdBlockCache {
+    private final long maxBytes;
+    private final LinkedHashMap<ColdSegment, List<ColdPayload>> segments = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long hits; // Odczyty obsłużone z cache
+    private long reads; // Odczyty wymagające rozpakowania
+    private long readNanos; // Łączny czas rozpakowań
+    private ColdSegment restoringSegment; // Ostatnio przywracany segment (poza limitem cache, najwyżej jeden)
+    private List<ColdPayload> restoringPayloads;
+
+    public ColdBlockCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Odczyt segmentu z cache lub przez rozpakowanie (z pomiarem czasu)
+    public List<ColdPayload> read(ColdSegment segment) {
+        List<ColdPayload> cached = segments.get(segment);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        long start = System.nanoTime();
+        List<ColdPayload> unpacked = segment.unpack();
+        readNanos += System.nanoTime() - start;
+        reads++;
+        put(segment, unpacked);
+        return unpacked;
+    }
+
+    // Odczyt na potrzeby przywracania koncertów - nie jest wliczany do statystyk zimnych odczytów
+    // Ostatnio przywracany segment jest pamiętany także wtedy, gdy nie mieści się w cache,
+    // aby przywracanie kolejnych koncertów z tego samego segmentu nie rozpakowywało go ponownie.
+    public List<ColdPayload> readQuietly(ColdSegment segment) {
+        List<ColdPayload> cached = segments.get(segment);
+        if (cached != null) {
+            return cached;
+        }
+        if (segment != restoringSegment) {
+            restoringSegment = segment;
+            restoringPayloads = segment.unpack();
+            put(segment, restoringPayloads);
+        }
+        return restoringPayloads;
+    }
+
+    // Segment z cache bez zmiany kolejności LRU i statystyk; null, jeśli go nie ma
+    public List<ColdPayload> peek(ColdSegment segment) {
+        if (segment == restoringSegment) {
+            return restoringPayloads;
+        }
+        return segments.containsKey(segment) ? segments.get(segment) : null;
+    }
+
+    // Dodanie rozpakowanego segmentu z usunięciem najdawniej używanych, gdy brakuje miejsca
+    private void put(ColdSegment segment, List<ColdPayload> payloads) {
+        if (segment.getHeapEstimate() > maxBytes) {
+            return; // Segment większy niż cały cache - nie przechowujemy go
+        }
+        segments.put(segment, payloads);
+        usedBytes += segment.getHeapEstimate();
+        for (Iterator<ColdSegment> iterator = segments.keySet().iterator(); usedBytes > maxBytes && iterator.hasNext();) {
+            usedBytes -= iterator.next().getHeapEstimate();
+            iterator.remove();
+        }
+    }
+
+    // Usunięcie segmentu z cache (np. po jego przepakowaniu)
+    public void invalidate(ColdSegment segment) {
+        if (segments.remove(segment) != null) {
+            usedBytes -= segment.getHeapEstimate();
+        }
+        if (segment == restoringSegment) {
+            restoringSegment = null;
+            restoringPayloads = null;
+        }
+    }
+
+    public boolean contains(ColdSegment segment) {
+        return segments.containsKey(segment);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+}
+
+// Klasa do odczytu zimnych koncertów w ramach jednej operacji
+// Poza cache trzymany jest co najwyżej jeden rozpakowany segment, więc pamięć odczytu jest ograniczona.
+class ColdSegmentReader {
+    private ColdSegment segment;
+    private List<ColdPayload> payloads;
+
+    ColdPayload payloadOf(ConcertDocument document) {
+        if (document.getColdSegment() != segment) {
+            segment = document.getColdSegment();
+            payloads = segment.read();
+        }
+        return payloads.get(document.getColdIndex());
+    }
+}
+
 // Klasa reprezentująca system archiwizacji dokumentów
+// Koncerty starsze niż próg roku lub nieużywane przez określony czas trafiają do warstwy zimnej:
+// ich piosenki i artyści są kompresowani w blokach, a obiekt koncertu zostaje na liście w tym samym miejscu.
+// Sięgnięcie po piosenki lub artystów z zewnątrz (getSongs/getMembers) albo modyfikacja przywraca koncert do warstwy gorącej.
 class DocumentArchive {
+    private static final int TIERING_BATCH = 64; // Liczba dodanych dokumentów, po której warstwy są porządkowane
+
     private List<Document> documents = new ArrayList<>();
+    private Map<String, ColdBlock> coldBlocks = new LinkedHashMap<>();
+    private final int coldYearThreshold;
+    private final long coldAfterMillis;
+    private final ColdBlockGrouping grouping;
+    private final ColdBlockCache cache;
+    private int addedSinceTiering;
+
+    public DocumentArchive() {
+        this(Year.now().getValue() - 5, 30 * 60 * 1000L, 4 * 1024 * 1024L, ColdBlockGrouping.YEAR);
+    }
+
+    public DocumentArchive(int coldYearThreshold, long coldAfterMillis, long cacheMaxBytes, ColdBlockGrouping grouping) {
+        this.coldYearThreshold = coldYearThreshold;
+        this.coldAfterMillis = coldAfterMillis;
+        this.grouping = grouping;
+        this.cache = new ColdBlockCache(cacheMaxBytes);
+    }
 
     // Metoda do dodawania nowych dokumentów
     public void addDocument(Document document) {
         documents.add(document);
+        if (document instanceof ConcertDocument) {
+            ((ConcertDocument) document).lastAccess = System.currentTimeMillis();
+        }
+        // Przenoszenie do warstwy zimnej odbywa się partiami, a nie przy każdym dodaniu
+        if (++addedSinceTiering >= TIERING_BATCH) {
+            moveColdDocuments();
+        }
     }
 
     // Metoda do usuwania dokumentów
     public void removeDocument(Document document) {
-        documents.remove(document);
+        if (documents.remove(document) && document instanceof ConcertDocument) {
+            ((ConcertDocument) document).restore(); // Zwolnienie miejsca w bloku zimnym
+        }
     }
 
     // Metoda do wyszukiwania dokumentów po tytule, roku lub miejscu przechowywania
     public List<Document> searchDocuments(String keyword) {
+        moveColdDocuments();
         List<Document> results = new ArrayList<>();
         for (Document document : documents) {
             if (document.getTitle().toLowerCase().contains(keyword.toLowerCase()) ||
                     String.valueOf(document.getYear()).contains(keyword) ||
                     document.getStorageLocation().toLowerCase().contains(keyword.toLowerCase())) {
                 results.add(document);
+                touch(document);
             }
         }
         return results;
@@ -172,29 +761,35 @@ class DocumentArchive {
 
     // Metoda do wyświetlania wszystkich dokumentów
     public void displayAllDocuments() {
+        moveColdDocuments();
         System.out.println("Wszystkie dokumenty:");
         for (Document document : documents) {
             System.out.println(document.getTitle());
+            touch(document);
         }
     }
 
     // Metoda do wyświetlania koncertów
     public void displayConcerts() {
+        moveColdDocuments();
         System.out.println("Koncerty:");
         for (Document document : documents) {
             if (document instanceof ConcertDocument) {
                 System.out.println(document.getTitle());
+                touch(document);
             }
         }
     }
 
     // Metoda do wyświetlania piosenek wraz z przypisanymi koncertami
     public void displaySongsWithConcerts() {
+        moveColdDocuments();
+        ColdSegmentReader coldReader = new ColdSegmentReader();
         System.out.println("Piosenki:");
         for (Document document : documents) {
             if (document instanceof ConcertDocument) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
-                for (String song : concertDocument.getSongs()) {
+                for (String song : songsOf(concertDocument, coldReader)) {
                     System.out.println(song + " - " + concertDocument.getTitle());
                 }
             }
@@ -203,11 +798,13 @@ class DocumentArchive {
 
     // Metoda do wyświetlania artystów
     public void displayArtists() {
+        moveColdDocuments();
+        ColdSegmentReader coldReader = new ColdSegmentReader();
         System.out.println("Artyści:");
         for (Document document : documents) {
             if (document instanceof ConcertDocument) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
-                for (String artist : concertDocument.getMembers().keySet()) {
+                for (String artist : membersOf(concertDocument, coldReader).keySet()) {
                     System.out.println(artist);
                 }
             }
@@ -216,6 +813,7 @@ class DocumentArchive {
 
     // Metoda do wyświetlania lat z przypisanymi koncertami
     public void displayYearsWithConcerts() {
+        moveColdDocuments();
         System.out.println("Daty:");
         Set<Integer> years = new HashSet<>();
         for (Document document : documents) {
@@ -225,6 +823,7 @@ class DocumentArchive {
             for (Document document : documents) {
                 if (document.getYear() == year) {
                     System.out.println(year + " - " + document.getTitle());
+                    touch(document);
                 }
             }
         }
@@ -232,6 +831,7 @@ class DocumentArchive {
 
     // Metoda do wyświetlania miejsc z przypisanymi koncertami
     public void displayLocationsWithConcerts() {
+        moveColdDocuments();
         System.out.println("Miejsca:");
         Set<String> locations = new HashSet<>();
         for (Document document : documents) {
@@ -241,6 +841,7 @@ class DocumentArchive {
             for (Document document : documents) {
                 if (document.getStorageLocation().equals(location)) {
                     System.out.println(location + " - " + document.getTitle());
+                    touch(document);
                 }
             }
         }
@@ -257,14 +858,17 @@ class DocumentArchive {
 
     // Metoda do wyszukiwania koncertu po nazwie piosenki
     public void findConcertBySong(String songName) {
+        moveColdDocuments();
+        ColdSegmentReader coldReader = new ColdSegmentReader();
         boolean found = false;
         for (Document document : documents) {
             if (document instanceof ConcertDocument) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
-                if (concertDocument.getSongs().contains(songName)) {
+                if (songsOf(concertDocument, coldReader).contains(songName)) {
                     System.out.println("Koncert: " + concertDocument.getTitle());
                     System.out.println("Data: " + concertDocument.getYear());
                     System.out.println("Miejsce: " + concertDocument.getStorageLocation());
+                    touch(concertDocument);
                     found = true;
                 }
             }
@@ -276,6 +880,7 @@ class DocumentArchive {
 
     // Metoda do wyszukiwania koncertu po dacie
     public void findConcertByDate(int year) {
+        moveColdDocuments();
         boolean found = false;
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getYear() == year) {
@@ -283,6 +888,7 @@ class DocumentArchive {
                 System.out.println("Koncert: " + concertDocument.getTitle());
                 System.out.println("Data: " + concertDocument.getYear());
                 System.out.println("Miejsce: " + concertDocument.getStorageLocation());
+                touch(concertDocument);
                 found = true;
             }
         }
@@ -293,6 +899,7 @@ class DocumentArchive {
 
     // Metoda do wyszukiwania koncertu po miejscu
     public void findConcertByLocation(String location) {
+        moveColdDocuments();
         boolean found = false;
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getStorageLocation().equalsIgnoreCase(location)) {
@@ -300,6 +907,7 @@ class DocumentArchive {
                 System.out.println("Koncert: " + concertDocument.getTitle());
                 System.out.println("Data: " + concertDocument.getYear());
                 System.out.println("Miejsce: " + concertDocument.getStorageLocation());
+                touch(concertDocument);
                 found = true;
             }
         }
@@ -310,14 +918,17 @@ class DocumentArchive {
 
     // Metoda do wyszukiwania piosenek po nazwie koncertu
     public void findSongsByConcertTitle(String concertTitle) {
+        moveColdDocuments();
+        ColdSegmentReader coldReader = new ColdSegmentReader();
         boolean found = false;
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
                 System.out.println("Piosenki dla koncertu '" + concertTitle + "':");
-                for (String song : concertDocument.getSongs()) {
+                for (String song : songsOf(concertDocument, coldReader)) {
                     System.out.println(song);
                 }
+                touch(concertDocument);
                 found = true;
             }
         }
@@ -328,14 +939,17 @@ class DocumentArchive {
 
     // Metoda do wyświetlania artystów po koncercie
     public void findArtistsByConcert(String concertTitle) {
+        moveColdDocuments();
+        ColdSegmentReader coldReader = new ColdSegmentReader();
         boolean found = false;
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
                 System.out.println("Artyści dla koncertu '" + concertTitle + "':");
-                for (String artist : concertDocument.getMembers().keySet()) {
+                for (String artist : membersOf(concertDocument, coldReader).keySet()) {
                     System.out.println(artist);
                 }
+                touch(concertDocument);
                 found = true;
             }
         }
@@ -350,7 +964,9 @@ class DocumentArchive {
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(currentTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
+                concertDocument.restore(); // Przywrócenie do warstwy gorącej
                 concertDocument.title = newTitle; // Ustawienie nowego tytułu
+                touch(concertDocument);
                 System.out.println("Zmieniono tytuł koncertu '" + currentTitle + "' na '" + newTitle + "'.");
                 found = true;
             }
@@ -366,8 +982,10 @@ class DocumentArchive {
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
+                concertDocument.restore(); // Przywrócenie do warstwy gorącej
                 concertDocument.getSongs().clear(); // Usunięcie wszystkich piosenek
                 concertDocument.getSongs().addAll(newSongs); // Dodanie nowych piosenek
+                touch(concertDocument);
                 System.out.println("Zaktualizowano listę piosenek dla koncertu '" + concertTitle + "'.");
                 found = true;
             }
@@ -383,7 +1001,9 @@ class DocumentArchive {
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
+                concertDocument.restore(); // Przywrócenie do warstwy gorącej
                 concertDocument.year = newYear; // Ustawienie nowej daty
+                touch(concertDocument);
                 System.out.println("Zmieniono rok koncertu '" + concertTitle + "' na '" + newYear + "'.");
                 found = true;
             }
@@ -399,8 +1019,10 @@ class DocumentArchive {
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
+                concertDocument.restore(); // Przywrócenie do warstwy gorącej
                 concertDocument.getMembers().clear(); // Usunięcie wszystkich artystów
                 concertDocument.getMembers().putAll(newMembers); // Dodanie nowych artystów
+                touch(concertDocument);
                 System.out.println("Zaktualizowano listę artystów dla koncertu '" + concertTitle + "'.");
                 found = true;
             }
@@ -416,7 +1038,9 @@ class DocumentArchive {
         for (Document document : documents) {
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 ConcertDocument concertDocument = (ConcertDocument) document;
+                concertDocument.restore(); // Przywrócenie do warstwy gorącej
                 concertDocument.storageLocation = newLocation; // Ustawienie nowego miejsca
+                touch(concertDocument);
                 System.out.println("Zmieniono miejsce koncertu '" + concertTitle + "' na '" + newLocation + "'.");
                 found = true;
             }
@@ -432,6 +1056,7 @@ class DocumentArchive {
             Document document = iterator.next();
             if (document instanceof ConcertDocument && document.getTitle().equalsIgnoreCase(concertTitle)) {
                 iterator.remove();
+                ((ConcertDocument) document).restore(); // Zwolnienie miejsca w bloku zimnym
                 System.out.println("Usunięto koncert o tytule: " + concertTitle);
                 removed = true;
             }
@@ -441,6 +1066,102 @@ class DocumentArchive {
         }
     }
 
+    // Metoda do wyświetlania raportu warstw przechowywania
+    public void displayStorageReport() {
+        moveColdDocuments();
+        int hotConcerts = 0;
+        int coldConcerts = 0;
+        for (Document document : documents) {
+            if (document instanceof ConcertDocument) {
+                if (((ConcertDocument) document).isCold()) {
+                    coldConcerts++;
+                } else {
+                    hotConcerts++;
+                }
+            }
+        }
+        int segmentCount = 0;
+        long heapBytes = 0;
+        long compressedBytes = 0;
+        // Narzut warstw: pola stanu w każdym koncercie oraz obiekty bloków i segmentów
+        long overheadBytes = (long) HeapSizes.CONCERT_TIER_FIELDS * (hotConcerts + coldConcerts);
+        for (ColdBlock block : coldBlocks.values()) {
+            segmentCount += block.getSegmentCount();
+            heapBytes += block.getHeapEstimate();
+            compressedBytes += block.getCompressedSize();
+            overheadBytes += block.getOverheadEstimate();
+        }
+        long savedBytes = heapBytes - compressedBytes - cache.getUsedBytes() - overheadBytes;
+
+        System.out.println("Raport przechowywania (rozmiary na stercie szacowane dla 64-bitowej JVM ze skompresowanymi wskaźnikami):");
+        System.out.println("Koncerty w warstwie gorącej: " + hotConcerts);
+        System.out.println("Koncerty w warstwie zimnej: " + coldConcerts + " (bloki: " + coldBlocks.size() + ", segmenty: " + segmentCount + ")");
+        System.out.println("Piosenki i artyści zimnych koncertów po rozpakowaniu (szacunek): " + heapBytes + " B");
+        System.out.println("Po kompresji: " + compressedBytes + " B");
+        System.out.println("Cache segmentów (szacunek): " + cache.getUsedBytes() + " / " + cache.getMaxBytes() + " B (segmenty: " + cache.size() + ")");
+        System.out.println("Narzut warstw (szacunek): " + overheadBytes + " B");
+        System.out.println("Zaoszczędzona pamięć (szacunek przy powyższych założeniach): " + savedBytes + " B");
+        System.out.println("Odczyty zimne z cache: " + cache.getHits() + ", z rozpakowaniem: " + cache.getReads());
+        if (cache.getReads() > 0) {
+            System.out.printf("Średni czas rozpakowania segmentu: %.1f µs%n", cache.getReadNanos() / 1000.0 / cache.getReads());
+        } else {
+            System.out.println("Średni czas rozpakowania segmentu: brak odczytów");
+        }
+    }
+
+    // Przeniesienie starych lub dawno nieużywanych koncertów do bloków (nowe segmenty na końcu bloku)
+    private void moveColdDocuments() {
+        addedSinceTiering = 0;
+        long now = System.currentTimeMillis();
+        Map<String, List<ConcertDocument>> toPack = new LinkedHashMap<>();
+        for (Document document : documents) {
+            if (document instanceof ConcertDocument && isCold((ConcertDocument) document, now)) {
+                ConcertDocument concertDocument = (ConcertDocument) document;
+                toPack.computeIfAbsent(grouping.blockKey(concertDocument), key -> new ArrayList<>()).add(concertDocument);
+            }
+        }
+        for (Map.Entry<String, List<ConcertDocument>> entry : toPack.entrySet()) {
+            coldBlocks.computeIfAbsent(entry.getKey(), key -> new ColdBlock(key, cache)).append(entry.getValue());
+        }
+        // Porządkowanie segmentów po przywróconych lub usuniętych koncertach
+        for (Iterator<ColdBlock> iterator = coldBlocks.values().iterator(); iterator.hasNext();) {
+            ColdBlock block = iterator.next();
+            block.compact();
+            if (block.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // Koncert jest zimny, gdy długo nieużywany lub starszy niż próg (chyba że przywrócono go do warstwy gorącej)
+    private boolean isCold(ConcertDocument document, long now) {
+        if (document.isCold()) {
+            return false; // Już jest w warstwie zimnej
+        }
+        if (now - document.lastAccess > coldAfterMillis) {
+            return true;
+        }
+        return document.getYear() < coldYearThreshold && !document.restored;
+    }
+
+    // Odświeżenie czasu użycia koncertu - wywoływane przy każdym odczycie jego danych, także w listach
+    private void touch(Document document) {
+        if (document instanceof ConcertDocument) {
+            ((ConcertDocument) document).lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    // Piosenki koncertu do odczytu - bez przywracania go do warstwy gorącej
+    private List<String> songsOf(ConcertDocument document, ColdSegmentReader coldReader) {
+        touch(document);
+        return document.isCold() ? coldReader.payloadOf(document).songs : document.getSongs();
+    }
+
+    // Artyści koncertu do odczytu - bez przywracania go do warstwy gorącej
+    private Map<String, String> membersOf(ConcertDocument document, ColdSegmentReader coldReader) {
+        touch(document);
+        return document.isCold() ? coldReader.payloadOf(document).members : document.getMembers();
+    }
 }
 
 // Główna klasa programu
@@ -499,6 +1220,7 @@ public class Main {
             System.out.println("18. Usuń koncert");
             System.out.println("19. Wyświetl historię zmian");
             System.out.println("20. Wyjdź");
+            System.out.println("21. Raport przechowywania");
             System.out.print("Twój wybór: ");
 
             int choice = scanner.nextInt();
@@ -651,6 +1373,9 @@ public class Main {
                 case 20:
                     exit = true;
                     break;
+                case 21:
+                    archive.displayStorageReport();
+                    break;
                 default:
                     System.out.println("Nieprawidłowa opcja. Spróbuj ponownie.");
             }
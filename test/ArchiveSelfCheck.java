@@ -0,0 +1,260 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Samodzielny test warstw przechowywania archiwum
+// Uruchomienie: javac -encoding UTF-8 -d out src/Main.java test/ArchiveSelfCheck.java && java -cp out ArchiveSelfCheck
+public class ArchiveSelfCheck {
+    public static void main(String[] args) throws InterruptedException {
+        checkSegmentRoundTrip();
+        checkCacheEviction();
+        checkSegmentMerging();
+        checkOutputMatchesHotArchive();
+        checkTiering();
+        checkIdleTiering();
+        checkListingsCountAsAccess();
+        checkStorageLocationGrouping();
+        checkRemovingColdConcert();
+        System.out.println("Test warstw przechowywania: OK");
+    }
+
+    // Spakowanie i rozpakowanie segmentu zachowuje piosenki, artystów, wartości null i długie napisy
+    private static void checkSegmentRoundTrip() {
+        ConcertDocument concert = concert("Koncert Łódź", 2001);
+        concert.getSongs().add(null);
+        concert.getSongs().add("ą".repeat(70000)); // Ponad 65535 bajtów UTF-8
+        concert.getMembers().put("Bez roli", null);
+        List<String> songs = new ArrayList<>(concert.getSongs());
+        Map<String, String> members = new HashMap<>(concert.getMembers());
+
+        new ColdBlock("Rok 2001", new ColdBlockCache(0)).append(List.of(concert));
+        check(concert.isCold(), "koncert nie trafił do segmentu");
+        ColdPayload unpacked = concert.getColdSegment().unpack().get(concert.getColdIndex());
+        check(unpacked.songs.equals(songs), "piosenki po rozpakowaniu różnią się");
+        check(unpacked.members.equals(members), "artyści po rozpakowaniu różnią się");
+    }
+
+    // Cache usuwa najdawniej używany segment po przekroczeniu limitu bajtów
+    private static void checkCacheEviction() {
+        ConcertDocument probe = concert("P", 2000);
+        new ColdBlock("probe", new ColdBlockCache(0)).append(List.of(probe));
+        long segmentSize = probe.getColdSegment().getHeapEstimate();
+
+        ColdBlockCache cache = new ColdBlockCache(segmentSize + segmentSize / 2);
+        ConcertDocument a = concert("A", 2001);
+        ConcertDocument b = concert("B", 2002);
+        new ColdBlock("A", cache).append(List.of(a));
+        new ColdBlock("B", cache).append(List.of(b));
+        ColdSegment first = a.getColdSegment();
+        ColdSegment second = b.getColdSegment();
+
+        first.read();
+        check(cache.contains(first), "pierwszy segment nie trafił do cache");
+        first.read();
+        check(cache.getHits() == 1 && cache.getReads() == 1, "drugi odczyt nie został obsłużony z cache");
+        second.read();
+        check(!cache.contains(first) && cache.contains(second), "cache nie usunął najdawniej używanego segmentu");
+        check(cache.getUsedBytes() <= cache.getMaxBytes(), "cache przekroczył limit bajtów");
+    }
+
+    // Pojedyncze dopisania scalają się w segmenty, duże partie są dzielone, a przywrócone pozycje są sprzątane
+    private static void checkSegmentMerging() {
+        ColdBlock block = new ColdBlock("Rok 2000", new ColdBlockCache(0));
+        List<ConcertDocument> appended = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ConcertDocument concert = concert("Scalany " + i, 2000);
+            appended.add(concert);
+            block.append(List.of(concert));
+        }
+        check(block.getSegmentCount() == 1, "osiem pojedynczych dopisań nie scaliło się w jeden segment");
+        for (ConcertDocument concert : appended) {
+            ColdPayload payload = new ColdSegmentReader().payloadOf(concert);
+            check(payload.songs.get(0).equals("Piosenka " + concert.getTitle()), "scalony segment ma złe dane");
+        }
+
+        List<ConcertDocument> batch = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            batch.add(concert("Partia " + i, 2000));
+        }
+        ColdBlock large = new ColdBlock("Rok 2000", new ColdBlockCache(0));
+        large.append(batch);
+        check(large.getSegmentCount() == 3, "partia nie została podzielona na segmenty po 256 koncertów");
+
+        for (int i = 0; i < 200; i++) {
+            batch.get(i).restore();
+        }
+        large.compact();
+        check(large.getDocumentCount() == 400 && large.getSegmentCount() == 3, "sprzątanie segmentów zgubiło koncerty");
+        check(batch.get(0).getColdSegment() == null && batch.get(200).getColdSegment() != null, "zły stan koncertów po sprzątaniu");
+        ColdPayload payload = new ColdSegmentReader().payloadOf(batch.get(200));
+        check(payload.songs.get(0).equals("Piosenka Partia 200"), "przepakowany segment ma złe dane");
+    }
+
+    // Wyniki find* i display* z zimnymi koncertami są takie same jak w archiwum bez warstwy zimnej
+    private static void checkOutputMatchesHotArchive() {
+        String expected = runQueries(archive(new DocumentArchive(Integer.MIN_VALUE, Long.MAX_VALUE, 0, ColdBlockGrouping.YEAR)));
+        for (ColdBlockGrouping grouping : ColdBlockGrouping.values()) {
+            for (long cacheBytes : new long[]{1, 100L * 1024 * 1024}) {
+                DocumentArchive tiered = archive(new DocumentArchive(2020, 60 * 60 * 1000L, cacheBytes, grouping));
+                int cold = 0;
+                for (Document document : tiered.searchDocuments("")) {
+                    cold += ((ConcertDocument) document).isCold() ? 1 : 0;
+                }
+                check(cold > 0, "żaden koncert nie trafił do warstwy zimnej");
+                check(runQueries(tiered).equals(expected),
+                        "wynik różni się od archiwum bez warstwy zimnej (" + grouping + ", cache " + cacheBytes + " B)");
+            }
+        }
+    }
+
+    // Stare koncerty trafiają do warstwy zimnej bez utraty tożsamości i wracają po modyfikacji
+    private static void checkTiering() {
+        DocumentArchive archive = new DocumentArchive(2020, 60 * 1000L, 1024 * 1024L, ColdBlockGrouping.YEAR);
+        ConcertDocument recent = concert("Nowy", 2024);
+        ConcertDocument old = concert("Stary", 2001);
+        archive.addDocument(recent);
+        archive.addDocument(old);
+
+        List<Document> results = archive.searchDocuments("");
+        check(results.equals(List.of(recent, old)), "kolejność lub tożsamość dokumentów się zmieniła");
+        check(old.isCold() && !recent.isCold(), "stary koncert nie trafił do warstwy zimnej");
+
+        old.addCopy();
+        check(archive.searchDocuments("Stary").get(0).getNumberOfCopies() == 2, "zmiana zimnego koncertu przepadła");
+
+        capture(() -> archive.modifyConcertDate("Stary", 2002));
+        check(!old.isCold() && old.getYear() == 2002, "modyfikacja nie przywróciła koncertu");
+        check(old.getSongs().equals(List.of("Piosenka Stary", "Wspólna piosenka")), "piosenki po przywróceniu różnią się");
+        archive.searchDocuments("");
+        check(!old.isCold(), "przywrócony koncert od razu wrócił do warstwy zimnej");
+    }
+
+    // Nowy, ale nieużywany koncert trafia do warstwy zimnej po upływie czasu bezczynności
+    private static void checkIdleTiering() throws InterruptedException {
+        DocumentArchive archive = new DocumentArchive(Integer.MIN_VALUE, 20, 1024 * 1024L, ColdBlockGrouping.YEAR);
+        ConcertDocument concert = concert("Bezczynny", 2024);
+        archive.addDocument(concert);
+        archive.searchDocuments("");
+        check(!concert.isCold(), "świeżo dodany koncert trafił do warstwy zimnej");
+        Thread.sleep(60);
+        archive.searchDocuments("zzz");
+        check(concert.isCold(), "nieużywany koncert nie trafił do warstwy zimnej");
+    }
+
+    // Wyświetlanie list i odczyt getSongs odświeżają czas użycia koncertu
+    private static void checkListingsCountAsAccess() {
+        DocumentArchive archive = new DocumentArchive(Integer.MIN_VALUE, 60 * 60 * 1000L, 1024 * 1024L, ColdBlockGrouping.YEAR);
+        ConcertDocument concert = concert("Czytany", 2024);
+        archive.addDocument(concert);
+        long before = System.currentTimeMillis();
+
+        concert.lastAccess = 0;
+        capture(archive::displaySongsWithConcerts);
+        check(concert.lastAccess >= before, "lista piosenek nie odświeżyła czasu użycia");
+        concert.lastAccess = 0;
+        capture(archive::displayConcerts);
+        check(concert.lastAccess >= before, "lista koncertów nie odświeżyła czasu użycia");
+        concert.lastAccess = 0;
+        concert.getSongs();
+        check(concert.lastAccess >= before, "getSongs nie odświeżył czasu użycia");
+    }
+
+    // Przy grupowaniu po miejscu koncerty z różnych lat trafiają do bloku swojego miejsca
+    private static void checkStorageLocationGrouping() {
+        DocumentArchive archive = new DocumentArchive(2020, 60 * 60 * 1000L, 1024 * 1024L, ColdBlockGrouping.STORAGE_LOCATION);
+        ConcertDocument first = concert("Pierwszy", 2001);
+        ConcertDocument second = concert("Drugi", 2005);
+        archive.addDocument(first);
+        archive.addDocument(second);
+        archive.searchDocuments("");
+        check(first.isCold() && second.isCold(), "koncerty nie trafiły do warstwy zimnej");
+        check(first.getColdSegment().getBlock() == second.getColdSegment().getBlock(), "koncerty z jednego miejsca są w różnych blokach");
+        check(first.getColdSegment().getBlock().getKey().equals("Miejsce Sala 1"), "zły klucz bloku");
+    }
+
+    // Usunięcie zimnego koncertu nie psuje pozostałych koncertów z tego samego segmentu
+    private static void checkRemovingColdConcert() {
+        DocumentArchive archive = new DocumentArchive(2020, 60 * 60 * 1000L, 1024 * 1024L, ColdBlockGrouping.YEAR);
+        ConcertDocument removed = concert("Usuwany", 2001);
+        ConcertDocument kept = concert("Zostaje", 2001);
+        archive.addDocument(removed);
+        archive.addDocument(kept);
+        archive.searchDocuments("");
+        check(removed.isCold() && removed.getColdSegment() == kept.getColdSegment(), "koncerty nie trafiły do jednego segmentu");
+
+        capture(() -> archive.removeConcert("Usuwany"));
+        check(archive.searchDocuments("Usuwany").isEmpty(), "usunięty koncert nadal jest w archiwum");
+        check(removed.getSongs().equals(List.of("Piosenka Usuwany", "Wspólna piosenka")), "usunięty obiekt stracił piosenki");
+        check(capture(() -> archive.findSongsByConcertTitle("Zostaje")).contains("Piosenka Zostaje"), "pozostały koncert stracił piosenki");
+        check(!capture(() -> archive.findConcertBySong("Piosenka Usuwany")).contains("Koncert: Usuwany"), "usunięty koncert nadal jest wyszukiwany");
+    }
+
+    private static DocumentArchive archive(DocumentArchive archive) {
+        for (int i = 0; i < 900; i++) {
+            ConcertDocumentBuilder builder = new ConcertDocumentBuilder()
+                    .setTitle("Koncert " + i)
+                    .setYear(1995 + i % 30)
+                    .setCategory(i % 2 == 0 ? "Rock" : "Pop")
+                    .setStorageLocation("Miejsce " + i % 3)
+                    .addMember("Artysta " + i, "Wokalista")
+                    .addMember("Artysta " + (i + 1), "Perkusista");
+            for (int s = 0; s < 5; s++) {
+                builder.addSong("Piosenka " + i + "-" + s);
+            }
+            if (i % 7 == 0) {
+                builder.addSong("Wspólna piosenka");
+            }
+            archive.addDocument(builder.build());
+        }
+        return archive;
+    }
+
+    private static String runQueries(DocumentArchive archive) {
+        return capture(() -> {
+            archive.findConcertBySong("Piosenka 7-3");
+            archive.findConcertBySong("Wspólna piosenka");
+            archive.findConcertBySong("Brak takiej piosenki");
+            archive.findSongsByConcertTitle("koncert 12");
+            archive.findArtistsByConcert("Koncert 345");
+            archive.findConcertByDate(2001);
+            archive.findConcertByLocation("miejsce 2");
+            archive.displaySongsWithConcerts();
+            archive.displayAll();
+            for (Document document : archive.searchDocuments("Koncert 1")) {
+                System.out.println(document.getTitle());
+            }
+        });
+    }
+
+    private static ConcertDocument concert(String title, int year) {
+        return new ConcertDocumentBuilder()
+                .setTitle(title)
+                .setYear(year)
+                .setCategory("Rock")
+                .setStorageLocation("Sala 1")
+                .addMember("Jan Kowalski", "Wokalista")
+                .addSong("Piosenka " + title)
+                .addSong("Wspólna piosenka")
+                .build();
+    }
+
+    // Przechwycenie tekstu wypisanego przez archiwum
+    private static String capture(Runnable action) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setOut(original);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Test warstw przechowywania: " + message);
+        }
+    }
+}